@@ -2,11 +2,11 @@ package dabble;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import dict.Dictionary;
 
@@ -49,6 +49,30 @@ public class Dabble
 	 */
 	public static final Dictionary DICT = new Dictionary();
 
+	/**
+	 * The solver for the words of the dictionary used by the class, shared by the
+	 * classes of the package so that its tries are built only once.
+	 */
+	static final DabbleSolver SOLVER = new DabbleSolver(Dabble.DICT);
+
+	/**
+	 * The engine used to scramble the solution words. It aims for a scramble that
+	 * contains no dictionary word and needs at least half as many exchanges as
+	 * there are letters to reach the solution. The exchanges are counted to
+	 * every solution only for puzzles with at most
+	 * {@code ScrambleEngine.SOLUTION_LIMIT} solutions, such as unique puzzles;
+	 * the random puzzles of {@link #Dabble()} almost always have more, and their
+	 * scrambles are measured against the drawn solution only. A scramble that
+	 * contains a dictionary word is never used.
+	 */
+	private static final ScrambleEngine SCRAMBLER = new ScrambleEngine(Dabble.DICT, Dabble.SOLVER);
+
+	/**
+	 * The number of times the solution words are scrambled before giving up on a
+	 * scramble without dictionary words.
+	 */
+	private static final int SCRAMBLE_ATTEMPTS = 8;
+
 	/**
 	 * The shortest word length in the game.
 	 */
@@ -91,22 +115,29 @@ public class Dabble
 
 	/**
 	 * Initialize the words of the game by choosing random words from a dictionary.
+	 * Words whose letters cannot be scrambled without forming a dictionary word
+	 * are drawn again.
 	 */
 	public Dabble()
 	{
 		this.solution = new TreeMap<>();
 		this.scrambled = new TreeMap<>();
 		List<String> solutionList = new ArrayList<>();
+		List<String> scrambeledSol = null;
 		
-		for(int i = Dabble.MIN_WORD_LENGTH; i <= Dabble.MAX_WORD_LENGTH; i++)
+		while (scrambeledSol == null)
 		{
-			solutionList.add(getWord(i));
+			solutionList.clear();
+			for(int i = Dabble.MIN_WORD_LENGTH; i <= Dabble.MAX_WORD_LENGTH; i++)
+			{
+				solutionList.add(getWord(i));
+			}
+			
+			String [] temp = new String [solutionList.size()]; //Turn List to array to pass to scramble method.
+			temp = solutionList.toArray(temp);
+			scrambeledSol = scramble(temp, false);
 		}
 		
-		String [] temp = new String [solutionList.size()]; //Turn List to array to pass to scramble method.
-		temp = solutionList.toArray(temp);
-		List<String> scrambeledSol = scramble(temp);
-		
 		for (int i = 0; i < scrambeledSol.size(); i++)
 		{
 			this.scrambled.put(i+Dabble.MIN_WORD_LENGTH, scrambeledSol.get(i));
@@ -122,15 +153,36 @@ public class Dabble
 	 * otherwise an exception is thrown. Furthermore, the strings must be in
 	 * ascending order of length from {@code MIN_WORD_LENGTH, MIN_WORD_LENGTH + 1,
 	 * MIN_WORD_LENGTH + 2, ... , MAX_WORD_LENGTH}. Finally, the strings must all be
-	 * contained in the dictionary used by the class.
+	 * contained in the dictionary used by the class, and their letters must have
+	 * some scramble that contains no dictionary word.
 	 * 
 	 * @param words an array of NUMBER_OF_WORDS strings in ascending order of length
 	 * @throws IllegalArgumentException if
 	 *                                  {@code words.length != Dabble.NUMBER_OF_WORDS}
 	 *                                  or if the strings in word are not in
-	 *                                  ascending order by length
+	 *                                  ascending order by length, or if no
+	 *                                  scramble without a dictionary word is found
 	 */
 	public Dabble(String... words) 
+	{
+		this(words, false);
+	}
+
+	/**
+	 * Initialize the words of the game by using the specified words, which the
+	 * caller may know to be the only solution of the puzzle.
+	 * 
+	 * <p>
+	 * If {@code unique} is {@code true} the puzzle is not solved again to find
+	 * other solutions to scramble away from.
+	 * 
+	 * @param words  an array of NUMBER_OF_WORDS strings in ascending order of
+	 *               length
+	 * @param unique {@code true} if the words are known to be the only solution
+	 * @throws IllegalArgumentException under the same conditions as
+	 *                                  {@link #Dabble(String...)}
+	 */
+	Dabble(String[] words, boolean unique)
 	{
 		this.solution = new TreeMap<>();
 		this.scrambled = new TreeMap<>();
@@ -153,7 +205,11 @@ public class Dabble
 			}
 		}
 		
-		List<String> scrambeledSol = scramble(words);
+		List<String> scrambeledSol = scramble(words, unique);
+		if (scrambeledSol == null)
+		{
+			throw new IllegalArgumentException("Expected words that can be scrambled without forming a dictionary word got " + Arrays.toString(words));
+		}
 		
 		for (int i = 0; i < scrambeledSol.size(); i++)
 		{
@@ -188,37 +244,50 @@ public class Dabble
 		return word;
 	}
 	
-	private List<String> scramble (String [] solution)
+	/**
+	 * Returns the scrambled solution words, or {@code null} if every scramble
+	 * tried contains a dictionary word, in which case the board could start out
+	 * partly or fully solved.
+	 */
+	private List<String> scramble (String [] solution, boolean unique)
 	{
-		List<Character> shuffeled = new ArrayList<>();
 		List<String> scrambledList = new ArrayList<>();
 		StringBuilder sb = new StringBuilder();
+		int [] lengths = new int [solution.length];
 
 		for (int i = 0; i <solution.length; i++)
 		{
-			for (int j = 0; j<solution[i].length(); j++)
+			sb.append(solution[i]);
+			lengths[i] = solution[i].length();
+		}
+
+		char [] letters = new char [sb.length()];
+		sb.getChars(0, letters.length, letters, 0);
+		ScrambleEngine.Result result = null;
+		for (int attempt = 0; attempt < Dabble.SCRAMBLE_ATTEMPTS; attempt++)
+		{
+			result = Dabble.SCRAMBLER.scramble(letters, lengths,
+					ScrambleEngine.guaranteedExchanges(letters.length), ThreadLocalRandom.current(), unique);
+			if (result.getDictionaryWords() == 0)
 			{
-				shuffeled.add(solution[i].charAt(j));
+				break;
 			}
 		}
-		
-		Collections.shuffle(shuffeled);
-		
-		for (int i = 0; i < shuffeled.size(); i++)
+
+		if (result.getDictionaryWords() > 0)
 		{
-			sb.append(shuffeled.get(i));
+			return null;
 		}
-		
-		String temp = sb.toString();   
+
+		char [] shuffeled = result.getLetters();
 		int index = 0;
-		
+
 		for (int i = 0; i <solution.length; i++)
 		{
-			int length = solution[i].length();
-			scrambledList.add(temp.substring(index,length+index));
-			index+=length;
+			scrambledList.add(new String(shuffeled, index, lengths[i]));
+			index+=lengths[i];
 		}
-	
+
 		return scrambledList;
 	}
 
@@ -24,6 +24,7 @@ import javax.swing.JPanel;
 public class DabbleGUI extends JFrame implements ActionListener {
 
 	private static final String NEW_GAME = "NEW_GAME";
+	private static final String NEW_UNIQUE_GAME = "NEW_UNIQUE_GAME";
 	private static final String GIVE_UP = "GIVE_UP";
 	private static final String EXIT = "EXIT";
 
@@ -31,6 +32,7 @@ public class DabbleGUI extends JFrame implements ActionListener {
 	private int buttonsPressed;
 	private String lastKey;
 	private Dabble dab;
+	private UniqueDabbleGenerator uniqueGenerator;
 
 	/**
 	 * Create the Boggle user interface. Please see the lab for a detailed
@@ -60,6 +62,7 @@ public class DabbleGUI extends JFrame implements ActionListener {
 		bar.add(menu);
 
 		this.addMenuItem(menu, "New Game", NEW_GAME);
+		this.addMenuItem(menu, "New Unique Game", NEW_UNIQUE_GAME);
 		this.addMenuItem(menu, "Give up", GIVE_UP);
 		menu.addSeparator();
 		this.addMenuItem(menu, "Exit", EXIT);
@@ -130,6 +133,12 @@ public class DabbleGUI extends JFrame implements ActionListener {
 		if (key.equals(NEW_GAME)) {
 			this.dab = new Dabble();
 			this.setWords(this.dab.getScrambledWords());
+		} else if (key.equals(NEW_UNIQUE_GAME)) {
+			if (this.uniqueGenerator == null) {
+				this.uniqueGenerator = new UniqueDabbleGenerator();
+			}
+			this.dab = this.uniqueGenerator.next();
+			this.setWords(this.dab.getScrambledWords());
 		} else if (key.equals(GIVE_UP)) {
 			this.setWords(this.dab.getSolutionWords());
 		} else if (key.equals(EXIT)) {
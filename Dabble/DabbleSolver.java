@@ -0,0 +1,783 @@
+package dabble;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dict.Dictionary;
+
+/**
+ * A solver that finds the ways the letters of a Dabble puzzle can be
+ * partitioned into dictionary words of lengths 2, 3, 4, 5, and 6.
+ *
+ * <p>
+ * Because the player may exchange any two letters, a solution depends only on
+ * the multiset of letters in the puzzle and not on where the letters currently
+ * are. The solver therefore works on letter counts: the words of each length
+ * are grouped into anagram classes, and the search subtracts the letters of a
+ * class from the remaining counts one letter at a time.
+ *
+ * <p>
+ * The anagram classes of each length are stored in a trie whose letters are
+ * ordered from rarest to most common in the dictionary. The search always
+ * places the rarest remaining letter next, and every class that can hold it
+ * starts with it in this order, so the classes that fit the remaining letters
+ * are exactly the words reached by walking the trie below that letter while
+ * the counts allow. A branch of the trie is abandoned at the first letter that
+ * is used up.
+ *
+ * <p>
+ * A solver is immutable after construction and may be shared between threads.
+ */
+public class DabbleSolver
+{
+
+	private static final int ALPHABET_SIZE = 26;
+
+	/**
+	 * The total number of letters in a puzzle.
+	 */
+	static final int TOTAL_LETTERS;
+
+	static
+	{
+		int total = 0;
+		for (int len = Dabble.MIN_WORD_LENGTH; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			total += len;
+		}
+		TOTAL_LETTERS = total;
+	}
+
+	/**
+	 * The index of the first letter of the word of each length when the words of
+	 * a puzzle are concatenated in ascending order of length.
+	 */
+	private static final int[] SLOT_START = new int[Dabble.MAX_WORD_LENGTH + 1];
+
+	static
+	{
+		for (int len = Dabble.MIN_WORD_LENGTH + 1; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			SLOT_START[len] = SLOT_START[len - 1] + len - 1;
+		}
+	}
+
+	/**
+	 * The version of the dictionary the solver was built from.
+	 */
+	private final long dictionaryVersion;
+
+	/**
+	 * The letters from rarest to most common; {@code byRank[r]} is the letter
+	 * index ({@code 0} for {@code 'a'}) of rank {@code r}.
+	 */
+	private final int[] byRank;
+
+	/**
+	 * The trie of anagram classes of each word length, with the children of each
+	 * node stored contiguously in increasing order of rank. Bit {@code r} of
+	 * {@code edges[len][n]} is set if node {@code n} of length {@code len} has a
+	 * child for the letter of rank {@code r}; the children are stored in
+	 * {@code child[len]} starting at index {@code first[len][n]}. Node {@code 0}
+	 * is the root. The words of the class that ends at a node {@code n} of depth
+	 * {@code len} are {@code words[len][classes[len][n]]}.
+	 */
+	private final int[][] edges;
+	private final int[][] first;
+	private final int[][] child;
+	private final int[][] classes;
+	private final String[][][] words;
+
+	/**
+	 * The anagram classes of each word length indexed by their sorted letters.
+	 */
+	private final List<Map<String, String[]>> anagrams;
+
+	/**
+	 * Initializes a solver for the words of the specified dictionary.
+	 *
+	 * @param dict the dictionary that solution words are taken from
+	 */
+	public DabbleSolver(Dictionary dict)
+	{
+		this.dictionaryVersion = dict.version();
+		this.edges = new int[Dabble.MAX_WORD_LENGTH + 1][];
+		this.first = new int[Dabble.MAX_WORD_LENGTH + 1][];
+		this.child = new int[Dabble.MAX_WORD_LENGTH + 1][];
+		this.classes = new int[Dabble.MAX_WORD_LENGTH + 1][];
+		this.words = new String[Dabble.MAX_WORD_LENGTH + 1][][];
+		this.anagrams = new ArrayList<>();
+
+		List<String> all = new ArrayList<>();
+		for (int len = Dabble.MIN_WORD_LENGTH; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			for (String word : dict.getWordsByLength(len))
+			{
+				if (isLowerCase(word))
+				{
+					all.add(word);
+				}
+			}
+		}
+
+		int[] freq = letterCounts(all);
+		Integer[] order = new Integer[ALPHABET_SIZE];
+		for (int c = 0; c < ALPHABET_SIZE; c++)
+		{
+			order[c] = c;
+		}
+		Arrays.sort(order, (x, y) -> Integer.compare(freq[x], freq[y]));
+
+		this.byRank = new int[ALPHABET_SIZE];
+		int[] rankOf = new int[ALPHABET_SIZE];
+		for (int r = 0; r < ALPHABET_SIZE; r++)
+		{
+			this.byRank[r] = order[r];
+			rankOf[order[r]] = r;
+		}
+
+		for (int len = 0; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			Map<String, List<String>> spellings = new HashMap<>();
+
+			if (len >= Dabble.MIN_WORD_LENGTH)
+			{
+				for (String word : all)
+				{
+					if (word.length() == len)
+					{
+						spellings.computeIfAbsent(sortedLetters(word), k -> new ArrayList<>()).add(word);
+					}
+				}
+			}
+
+			Map<String, String[]> index = new HashMap<>();
+			List<int[]> nodes = new ArrayList<>();
+			List<Integer> ends = new ArrayList<>();
+			nodes.add(new int[ALPHABET_SIZE]);
+			ends.add(-1);
+			this.words[len] = new String[spellings.size()][];
+			int i = 0;
+
+			for (Map.Entry<String, List<String>> e : spellings.entrySet())
+			{
+				String[] w = e.getValue().toArray(new String[0]);
+				this.words[len][i] = w;
+				index.put(e.getKey(), w);
+
+				// insert the letters of the class in order of rank
+				int[] ranks = new int[len];
+				for (int j = 0; j < len; j++)
+				{
+					ranks[j] = rankOf[e.getKey().charAt(j) - 'a'];
+				}
+				Arrays.sort(ranks);
+
+				int node = 0;
+				for (int r : ranks)
+				{
+					if (nodes.get(node)[r] == 0)
+					{
+						nodes.get(node)[r] = nodes.size();
+						nodes.add(new int[ALPHABET_SIZE]);
+						ends.add(-1);
+					}
+					node = nodes.get(node)[r];
+				}
+				ends.set(node, i);
+				i++;
+			}
+
+			this.anagrams.add(index);
+			this.edges[len] = new int[nodes.size()];
+			this.first[len] = new int[nodes.size()];
+			this.child[len] = new int[nodes.size() - 1];
+			this.classes[len] = new int[nodes.size()];
+			int k = 0;
+
+			for (int n = 0; n < nodes.size(); n++)
+			{
+				this.first[len][n] = k;
+				for (int r = 0; r < ALPHABET_SIZE; r++)
+				{
+					if (nodes.get(n)[r] != 0)
+					{
+						this.edges[len][n] |= 1 << r;
+						this.child[len][k] = nodes.get(n)[r];
+						k++;
+					}
+				}
+				this.classes[len][n] = ends.get(n);
+			}
+		}
+	}
+
+	/**
+	 * Returns the child of a node of the trie of length {@code len} along the
+	 * edge for the letter of rank {@code r}, or {@code 0} if there is none.
+	 */
+	private int childOf(int len, int node, int r)
+	{
+		int mask = this.edges[len][node];
+		if ((mask & (1 << r)) == 0)
+		{
+			return 0;
+		}
+		return this.child[len][this.first[len][node] + Integer.bitCount(mask & ((1 << r) - 1))];
+	}
+
+	private static boolean isLowerCase(String word)
+	{
+		for (int i = 0; i < word.length(); i++)
+		{
+			char c = word.charAt(i);
+			if (c < 'a' || c > 'z')
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static String sortedLetters(String word)
+	{
+		char[] c = word.toCharArray();
+		Arrays.sort(c);
+		return new String(c);
+	}
+
+	/**
+	 * Returns the {@link Dictionary#version() version} of the dictionary this
+	 * solver was built from.
+	 *
+	 * @return the version of the dictionary of this solver
+	 */
+	public long dictionaryVersion()
+	{
+		return this.dictionaryVersion;
+	}
+
+	/**
+	 * Returns the words of the specified length that this solver uses, in
+	 * alphabetical order.
+	 */
+	List<String> words(int len)
+	{
+		List<String> result = new ArrayList<>();
+		if (len >= Dabble.MIN_WORD_LENGTH && len <= Dabble.MAX_WORD_LENGTH)
+		{
+			for (String[] spellings : this.words[len])
+			{
+				result.addAll(Arrays.asList(spellings));
+			}
+			result.sort(null);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of dictionary words of the specified length that are
+	 * anagrams of {@code word}, including {@code word} itself if it is in the
+	 * dictionary.
+	 *
+	 * @param word a word
+	 * @return the number of dictionary anagrams of the word
+	 */
+	public int anagramCount(String word)
+	{
+		if (word.length() < Dabble.MIN_WORD_LENGTH || word.length() > Dabble.MAX_WORD_LENGTH)
+		{
+			return 0;
+		}
+		String[] spellings = this.anagrams.get(word.length()).get(sortedLetters(word));
+		return spellings == null ? 0 : spellings.length;
+	}
+
+	/**
+	 * Returns the letter counts of the specified words. Element {@code 0} of the
+	 * returned array is the number of {@code 'a'}s, element {@code 1} the number
+	 * of {@code 'b'}s, and so on.
+	 *
+	 * @param words the words to count
+	 * @return the letter counts of the words
+	 * @throws IllegalArgumentException if a word contains a character other than
+	 *                                  a lower case letter
+	 */
+	public static int[] letterCounts(Iterable<String> words)
+	{
+		int[] counts = new int[ALPHABET_SIZE];
+
+		for (String word : words)
+		{
+			for (int i = 0; i < word.length(); i++)
+			{
+				char c = word.charAt(i);
+				if (c < 'a' || c > 'z')
+				{
+					throw new IllegalArgumentException("Expected lower case letters got " + word);
+				}
+				counts[c - 'a']++;
+			}
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Returns up to {@code limit} solutions for a puzzle having the specified
+	 * letter counts. Each solution is an array of {@code NUMBER_OF_WORDS} words in
+	 * ascending order of length.
+	 *
+	 * <p>
+	 * The search stops as soon as {@code limit} solutions have been found, so
+	 * asking for a small limit is much cheaper than enumerating every solution.
+	 *
+	 * @param counts the letter counts of the puzzle, as returned by
+	 *               {@link #letterCounts(Iterable)}
+	 * @param limit  the maximum number of solutions to return
+	 * @return a list of at most {@code limit} solutions
+	 * @throws IllegalArgumentException if {@code counts.length != 26} or if
+	 *                                  {@code limit} is negative
+	 */
+	public List<String[]> solve(int[] counts, int limit)
+	{
+		if (counts.length != ALPHABET_SIZE)
+		{
+			throw new IllegalArgumentException("Expected 26 letter counts got " + counts.length);
+		}
+
+		if (limit < 0)
+		{
+			throw new IllegalArgumentException("Expected non-negative limit got " + limit);
+		}
+
+		return this.partitions(counts, this.fullMask(), limit);
+	}
+
+	/**
+	 * Returns up to {@code limit} ways of splitting letters having the specified
+	 * counts into one dictionary word of each length in {@code open}, a mask
+	 * with bit {@code len} set for each word length to fill. The words are
+	 * placed in the returned arrays as in {@link #solve(int[], int)}; the
+	 * elements for lengths that are not in {@code open} are {@code null}.
+	 */
+	List<String[]> partitions(int[] counts, int open, int limit)
+	{
+		int total = 0;
+		for (int c : counts)
+		{
+			total += c;
+		}
+
+		int letters = 0;
+		for (int len = Dabble.MIN_WORD_LENGTH; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			if ((open & (1 << len)) != 0)
+			{
+				letters += len;
+			}
+		}
+
+		Search search = new Search(counts, limit, null, null);
+		if (limit > 0 && open != 0 && total == letters)
+		{
+			search.fill(open);
+		}
+		return search.result;
+	}
+
+	/**
+	 * Returns {@code true} if letters having the specified counts can be split
+	 * into one dictionary word of each length in {@code open} without using any
+	 * of {@code words} in its own slot; {@code words} is indexed like a
+	 * solution. The search stops at the first such split.
+	 */
+	boolean hasPartitionAvoiding(int[] counts, int open, String[] words)
+	{
+		Search search = new Search(counts, 1, words, null);
+		search.fill(open);
+		return !search.result.isEmpty();
+	}
+
+	/**
+	 * Returns the minimum number of exchanges of two letters needed to turn the
+	 * specified scrambled letters into any solution of the puzzle, or {@code -1}
+	 * if the puzzle has no solution. The scrambled letters are the scrambled
+	 * words concatenated in ascending order of length.
+	 *
+	 * <p>
+	 * Every solution is considered, but none is stored: the search abandons a
+	 * partial solution as soon as the letters it has placed differ from the
+	 * scrambled letters in so many positions that it cannot beat the closest
+	 * solution found so far.
+	 *
+	 * @param scrambled the scrambled letters of a puzzle
+	 * @return the minimum number of exchanges needed to solve the puzzle, or
+	 *         {@code -1} if it has no solution
+	 * @throws IllegalArgumentException if there are not {@code TOTAL_LETTERS}
+	 *                                  scrambled letters or a letter is not a
+	 *                                  lower case letter
+	 */
+	public int minimumExchanges(char[] scrambled)
+	{
+		if (scrambled.length != TOTAL_LETTERS)
+		{
+			throw new IllegalArgumentException("Expected " + TOTAL_LETTERS + " letters got " + scrambled.length);
+		}
+
+		List<String> words = new ArrayList<>();
+		words.add(new String(scrambled));
+		Search search = new Search(letterCounts(words), Integer.MAX_VALUE, null, scrambled);
+		search.fill(this.fullMask());
+		return search.best == Integer.MAX_VALUE ? -1 : search.best;
+	}
+
+	private int fullMask()
+	{
+		int open = 0;
+		for (int len = Dabble.MIN_WORD_LENGTH; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			open |= 1 << len;
+		}
+		return open;
+	}
+
+	/**
+	 * Returns the number of solutions for a puzzle having the specified letter
+	 * counts, counting no further than {@code limit}.
+	 *
+	 * @param counts the letter counts of the puzzle
+	 * @param limit  the count at which to stop searching
+	 * @return the number of solutions, or {@code limit} if there are at least
+	 *         that many
+	 */
+	public int countSolutions(int[] counts, int limit)
+	{
+		return this.solve(counts, limit).size();
+	}
+
+	/**
+	 * The state of one search; a new search is made for each call so that the
+	 * solver itself holds no mutable state. Letters are identified by rank
+	 * throughout: {@code have[r]} is the number of remaining letters of rank
+	 * {@code r}, and bit {@code r} of {@code present} is set while
+	 * {@code have[r] > 0}.
+	 *
+	 * <p>
+	 * A solution that uses the branch letter in several words would be reached
+	 * once for each of those words. To reach it only once, the letter is placed in
+	 * the longest open slot that contains it: the branch for a slot forbids the
+	 * letter in every longer open slot, which {@code forbidden} records as a
+	 * mask of ranks per word length.
+	 *
+	 * <p>
+	 * If {@code excluded} is not {@code null} then the word
+	 * {@code excluded[len - MIN_WORD_LENGTH]} is never placed in slot
+	 * {@code len}.
+	 *
+	 * <p>
+	 * If {@code target} is not {@code null} the search looks for the solution
+	 * closest to those scrambled letters instead of collecting solutions:
+	 * {@code mismatches} counts the positions where the placed words differ
+	 * from the target, and since one exchange fixes at most two positions a
+	 * branch is abandoned once half of them reaches {@code best}.
+	 */
+	private final class Search
+	{
+		final int[] have;
+		int present;
+		final int[] forbidden;
+		final String[] chosen;
+		final List<String[]> result;
+		final int limit;
+		final String[] excluded;
+		final char[] target;
+		final int[] targetRanks;
+		int mismatches;
+		int best;
+
+		Search(int[] counts, int limit, String[] excluded, char[] target)
+		{
+			this.have = new int[ALPHABET_SIZE];
+			for (int r = 0; r < ALPHABET_SIZE; r++)
+			{
+				this.have[r] = counts[DabbleSolver.this.byRank[r]];
+				if (this.have[r] > 0)
+				{
+					this.present |= 1 << r;
+				}
+			}
+			this.forbidden = new int[Dabble.MAX_WORD_LENGTH + 1];
+			this.chosen = new String[Dabble.NUMBER_OF_WORDS];
+			this.result = new ArrayList<>();
+			this.limit = limit;
+			this.excluded = excluded;
+			this.target = target;
+			this.best = Integer.MAX_VALUE;
+			this.targetRanks = target == null ? null : new int[target.length];
+			if (target != null)
+			{
+				int[] rankOf = new int[ALPHABET_SIZE];
+				for (int r = 0; r < ALPHABET_SIZE; r++)
+				{
+					rankOf[DabbleSolver.this.byRank[r]] = r;
+				}
+				for (int i = 0; i < target.length; i++)
+				{
+					this.targetRanks[i] = rankOf[target[i] - 'a'];
+				}
+			}
+		}
+
+		/**
+		 * Returns the number of positions where {@code word} in slot {@code len}
+		 * differs from the target.
+		 */
+		int mismatches(int len, String word)
+		{
+			int m = 0;
+			for (int i = 0; i < len; i++)
+			{
+				if (word.charAt(i) != this.target[SLOT_START[len] + i])
+				{
+					m++;
+				}
+			}
+			return m;
+		}
+
+		boolean isExcluded(int len, String word)
+		{
+			return this.excluded != null && word.equals(this.excluded[len - Dabble.MIN_WORD_LENGTH]);
+		}
+
+		/**
+		 * Returns a lower bound on the number of positions of the slots in
+		 * {@code open} that will differ from the target: at most as many
+		 * positions can match a letter as there are remaining copies of it.
+		 */
+		int unavoidable(int open)
+		{
+			int[] wanted = new int[ALPHABET_SIZE];
+			int positions = 0;
+			for (int len = Dabble.MIN_WORD_LENGTH; len <= Dabble.MAX_WORD_LENGTH; len++)
+			{
+				if ((open & (1 << len)) != 0)
+				{
+					for (int i = SLOT_START[len]; i < SLOT_START[len] + len; i++)
+					{
+						wanted[this.targetRanks[i]]++;
+					}
+					positions += len;
+				}
+			}
+
+			int matches = 0;
+			for (int r = 0; r < ALPHABET_SIZE; r++)
+			{
+				matches += Math.min(wanted[r], this.have[r]);
+			}
+			return positions - matches;
+		}
+
+		boolean done()
+		{
+			return this.result.size() >= this.limit || this.best == 0;
+		}
+
+		void take(int r)
+		{
+			if (--this.have[r] == 0)
+			{
+				this.present &= ~(1 << r);
+			}
+		}
+
+		void give(int r)
+		{
+			if (this.have[r]++ == 0)
+			{
+				this.present |= 1 << r;
+			}
+		}
+
+		/**
+		 * Fills one of the open slots with a word holding the rarest remaining
+		 * letter, which every solution must place in some open slot, and recurses
+		 * on the rest.
+		 */
+		void fill(int open)
+		{
+			if (Integer.bitCount(open) == 1)
+			{
+				// the remaining letters are fully determined; look them up directly
+				this.finish(Integer.numberOfTrailingZeros(open));
+				return;
+			}
+
+			int rarest = Integer.numberOfTrailingZeros(this.present);
+			int longer = 0;
+
+			for (int len = Dabble.MAX_WORD_LENGTH; len >= Dabble.MIN_WORD_LENGTH && !this.done(); len--)
+			{
+				if ((open & (1 << len)) == 0)
+				{
+					continue;
+				}
+
+				int node = DabbleSolver.this.childOf(len, 0, rarest);
+				if (node != 0 && (this.forbidden[len] & (1 << rarest)) == 0)
+				{
+					this.take(rarest);
+					this.extend(open, len, longer, rarest, rarest, node, 1);
+					this.give(rarest);
+				}
+				longer |= 1 << len;
+			}
+		}
+
+		/**
+		 * Walks the trie of length {@code len} below {@code node}, taking only
+		 * letters that remain, are allowed in the slot, and have a rank no lower
+		 * than the last letter taken, and places each class reached at full
+		 * depth.
+		 */
+		void extend(int open, int len, int longer, int branch, int rank, int node, int depth)
+		{
+			if (depth == len)
+			{
+				this.place(open, len, longer, branch, DabbleSolver.this.classes[len][node]);
+				return;
+			}
+
+			int mask = DabbleSolver.this.edges[len][node];
+			int base = DabbleSolver.this.first[len][node];
+			int[] children = DabbleSolver.this.child[len];
+			int bits = mask & this.present & ~this.forbidden[len] & -(1 << rank);
+
+			while (bits != 0 && !this.done())
+			{
+				int r = Integer.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+
+				this.take(r);
+				this.extend(open, len, longer, branch, r, children[base + Integer.bitCount(mask & ((1 << r) - 1))], depth + 1);
+				this.give(r);
+			}
+		}
+
+		/**
+		 * Puts each word of a class in slot {@code len} and recurses on the other
+		 * open slots. The branch letter, the rarest letter when the slot was
+		 * chosen, is forbidden in the longer open slots {@code longer}.
+		 */
+		void place(int open, int len, int longer, int branch, int cls)
+		{
+			int bit = 1 << branch;
+			int changed = 0;
+			for (int t = len + 1; t <= Dabble.MAX_WORD_LENGTH; t++)
+			{
+				if ((longer & (1 << t)) != 0 && (this.forbidden[t] & bit) == 0)
+				{
+					this.forbidden[t] |= bit;
+					changed |= 1 << t;
+				}
+			}
+
+			for (String word : DabbleSolver.this.words[len][cls])
+			{
+				if (this.isExcluded(len, word))
+				{
+					continue;
+				}
+
+				int m = 0;
+				if (this.target != null)
+				{
+					m = this.mismatches(len, word);
+					if ((this.mismatches + m + 1) / 2 >= this.best
+							|| (this.mismatches + m + this.unavoidable(open & ~(1 << len)) + 1) / 2 >= this.best)
+					{
+						continue;
+					}
+				}
+
+				this.chosen[len - Dabble.MIN_WORD_LENGTH] = word;
+				this.mismatches += m;
+				this.fill(open & ~(1 << len));
+				this.mismatches -= m;
+				if (this.done())
+				{
+					break;
+				}
+			}
+
+			this.chosen[len - Dabble.MIN_WORD_LENGTH] = null;
+			for (int t = len + 1; t <= Dabble.MAX_WORD_LENGTH; t++)
+			{
+				if ((changed & (1 << t)) != 0)
+				{
+					this.forbidden[t] &= ~bit;
+				}
+			}
+		}
+
+		void finish(int len)
+		{
+			if ((this.present & this.forbidden[len]) != 0)
+			{
+				return;
+			}
+
+			int node = 0;
+			int bits = this.present;
+
+			while (bits != 0)
+			{
+				int r = Integer.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+
+				for (int j = 0; j < this.have[r]; j++)
+				{
+					node = DabbleSolver.this.childOf(len, node, r);
+					if (node == 0)
+					{
+						return;
+					}
+				}
+			}
+
+			int cls = DabbleSolver.this.classes[len][node];
+			if (cls < 0)
+			{
+				return;
+			}
+
+			String[] spellings = DabbleSolver.this.words[len][cls];
+			for (int i = 0; i < spellings.length && !this.done(); i++)
+			{
+				if (this.isExcluded(len, spellings[i]))
+				{
+					continue;
+				}
+
+				String[] solution = this.chosen.clone();
+				solution[len - Dabble.MIN_WORD_LENGTH] = spellings[i];
+
+				if (this.target == null)
+				{
+					this.result.add(solution);
+				}
+				else if ((this.mismatches + this.mismatches(len, spellings[i]) + 1) / 2 < this.best)
+				{
+					char[] letters = String.join("", solution).toCharArray();
+					this.best = Math.min(this.best, ScrambleEngine.minimumExchanges(this.target, letters));
+				}
+			}
+		}
+	}
+}
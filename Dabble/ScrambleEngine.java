@@ -0,0 +1,646 @@
+package dabble;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import dict.Dictionary;
+
+/**
+ * Scrambles the letters of a Dabble solution so that the scrambled puzzle is
+ * far from solved.
+ *
+ * <p>
+ * The letters of the solution words are concatenated in ascending order of word
+ * length into a single {@code char[]}. A scramble is constructed rather than
+ * found by shuffling and retrying:
+ *
+ * <ol>
+ * <li>the positions are grouped by the letter they hold, the groups are put in a
+ * random order, and the positions within each group are shuffled;</li>
+ * <li>every letter is moved {@code s} places along this order, wrapping around
+ * at the end.</li>
+ * </ol>
+ *
+ * <p>
+ * If {@code m} is the number of copies of the most common letter then any shift
+ * {@code s} with {@code m <= s <= n - m} moves every letter into a group of a
+ * different letter, so no position keeps its solution letter. Because one
+ * exchange can fix at most two positions, such a scramble needs at least
+ * {@code n / 2} exchanges to reach the solution that was scrambled. The engine
+ * tries the valid shifts of a fixed number of group orders and returns the
+ * first scramble that meets the targets, so the work done is bounded by
+ * {@code ORDERS * n} candidates regardless of the words.
+ *
+ * <p>
+ * A puzzle with several solutions is solved as soon as the player reaches any
+ * of them, and a scramble that is far from the scrambled solution can be close
+ * to another one. An engine that is given a {@link DabbleSolver} therefore
+ * measures each candidate against every other solution of a puzzle that has at
+ * most {@code SOLUTION_LIMIT} solutions. A puzzle with more solutions, which
+ * includes almost every puzzle made by {@link Dabble#Dabble()}, is measured
+ * against the scrambled solution only, since any subset of its solutions would
+ * be arbitrary. The exchanges are therefore counted to every solution only for
+ * a puzzle with few solutions, such as the unique puzzles made by
+ * {@link UniqueDabbleGenerator}. Even then the {@code n / 2} bound holds only
+ * for the scrambled solution, so the targets may not be reachable; the engine
+ * never fails, and the returned {@link Result} tells the caller how close it
+ * came.
+ */
+public class ScrambleEngine
+{
+
+	/**
+	 * The number of random group orders tried before giving up on the targets.
+	 */
+	public static final int ORDERS = 4;
+
+	/**
+	 * The largest number of solutions a puzzle may have for candidates to be
+	 * measured against all of them.
+	 */
+	public static final int SOLUTION_LIMIT = 32;
+
+	private static final int ALPHABET_SIZE = 26;
+
+	private final Dictionary dict;
+
+	private final DabbleSolver solver;
+
+	/**
+	 * The result of scrambling a solution: the scrambled letters and how well
+	 * they meet the targets.
+	 */
+	public static final class Result
+	{
+		private final char[] letters;
+		private final int exchanges;
+		private final int dictionaryWords;
+		private final boolean exhaustive;
+
+		private Result(char[] letters, int exchanges, int dictionaryWords, boolean exhaustive)
+		{
+			this.letters = letters;
+			this.exchanges = exchanges;
+			this.dictionaryWords = dictionaryWords;
+			this.exhaustive = exhaustive;
+		}
+
+		/**
+		 * Returns the scrambled letters, laid out like the solution letters.
+		 *
+		 * @return a new array holding the scrambled letters
+		 */
+		public char[] getLetters()
+		{
+			return this.letters.clone();
+		}
+
+		/**
+		 * Returns the minimum number of exchanges needed to turn the scramble into
+		 * any of the solutions it was measured against.
+		 *
+		 * @return the minimum number of exchanges to reach a known solution
+		 */
+		public int getExchanges()
+		{
+			return this.exchanges;
+		}
+
+		/**
+		 * Returns the number of scrambled words that are dictionary words.
+		 *
+		 * @return the number of scrambled words in the dictionary
+		 */
+		public int getDictionaryWords()
+		{
+			return this.dictionaryWords;
+		}
+
+		/**
+		 * Returns {@code true} if the scramble was measured against every solution
+		 * of the puzzle, so that {@link #getExchanges()} is the number of exchanges
+		 * a player needs at the least. Returns {@code false} if the engine has no
+		 * solver or the puzzle has more than {@code SOLUTION_LIMIT} solutions.
+		 *
+		 * @return {@code true} if every solution of the puzzle was considered
+		 */
+		public boolean isExhaustive()
+		{
+			return this.exhaustive;
+		}
+	}
+
+	/**
+	 * Initializes a scramble engine that avoids the words of the specified
+	 * dictionary and measures scrambles against the scrambled solution only.
+	 *
+	 * @param dict the dictionary whose words must not appear in a scramble
+	 */
+	public ScrambleEngine(Dictionary dict)
+	{
+		this(dict, null);
+	}
+
+	/**
+	 * Initializes a scramble engine that avoids the words of the specified
+	 * dictionary and uses the specified solver to measure scrambles of Dabble
+	 * puzzles against their other solutions.
+	 *
+	 * @param dict   the dictionary whose words must not appear in a scramble
+	 * @param solver the solver used to find the other solutions of a puzzle, or
+	 *               {@code null} to consider the scrambled solution only
+	 */
+	public ScrambleEngine(Dictionary dict, DabbleSolver solver)
+	{
+		this.dict = dict;
+		this.solver = solver;
+	}
+
+	/**
+	 * Returns the largest number of exchanges that {@link #scramble} can guarantee
+	 * for a solution having {@code n} letters.
+	 *
+	 * @param n the number of letters in the solution
+	 * @return {@code n / 2}
+	 */
+	public static int guaranteedExchanges(int n)
+	{
+		return n / 2;
+	}
+
+	/**
+	 * Returns a scramble of the specified solution letters. The solution letters
+	 * are the solution words concatenated in ascending order of length; the
+	 * scramble is laid out the same way.
+	 *
+	 * <p>
+	 * The targets are that none of the scrambled words is in the dictionary and
+	 * that at least {@code minExchanges} exchanges are needed to reach the
+	 * solution, or any other solution the engine knows of. The first candidate
+	 * meeting both is returned. Both targets are best-effort: no candidate may
+	 * meet them, for example when every arrangement of the letters contains a
+	 * word (as with a puzzle made only of {@code x}), when the puzzle has other
+	 * solutions close to every candidate, or when {@code minExchanges} exceeds
+	 * {@code guaranteedExchanges(solution.length)}. The candidate that comes
+	 * closest is then returned: the fewest dictionary words first, then the most
+	 * exchanges. The caller can tell the two cases apart from the result.
+	 *
+	 * @param solution     the solution letters
+	 * @param lengths      the lengths of the solution words in order
+	 * @param minExchanges the minimum number of exchanges required to solve the
+	 *                     scramble
+	 * @param rng          the source of randomness
+	 * @return the scrambled letters and how well they meet the targets
+	 * @throws IllegalArgumentException if the lengths do not add up to
+	 *                                  {@code solution.length}
+	 */
+	public Result scramble(char[] solution, int[] lengths, int minExchanges, Random rng)
+	{
+		return this.scramble(solution, lengths, minExchanges, rng, false);
+	}
+
+	/**
+	 * Returns a scramble of the specified solution letters, as
+	 * {@link #scramble(char[], int[], int, Random)} does. If {@code unique} is
+	 * {@code true} the caller guarantees that the solution is the only solution
+	 * of the puzzle, so the engine does not search for others and the result is
+	 * exhaustive.
+	 *
+	 * @param solution     the solution letters
+	 * @param lengths      the lengths of the solution words in order
+	 * @param minExchanges the minimum number of exchanges required to solve the
+	 *                     scramble
+	 * @param rng          the source of randomness
+	 * @param unique       {@code true} if the solution is known to be the only
+	 *                     solution of the puzzle
+	 * @return the scrambled letters and how well they meet the targets
+	 * @throws IllegalArgumentException if the lengths do not add up to
+	 *                                  {@code solution.length}
+	 */
+	public Result scramble(char[] solution, int[] lengths, int minExchanges, Random rng, boolean unique)
+	{
+		int n = solution.length;
+		int total = 0;
+		for (int len : lengths)
+		{
+			total += len;
+		}
+
+		if (total != n)
+		{
+			throw new IllegalArgumentException("Expected word lengths adding up to " + n + " got " + Arrays.toString(lengths));
+		}
+
+		List<char[]> targets = new ArrayList<>();
+		targets.add(solution);
+		boolean exhaustive = unique || this.addOtherSolutions(solution, lengths, targets);
+
+		if (n < 2)
+		{
+			return new Result(solution.clone(), 0, this.dictionaryWords(solution, lengths), exhaustive);
+		}
+
+		int[] counts = new int[ALPHABET_SIZE + 1];
+		int most = 0;
+		for (char c : solution)
+		{
+			most = Math.max(most, ++counts[slot(c)]);
+		}
+
+		// shifts in [most, n - most] move every letter out of its own group
+		int lo = Math.min(most, n / 2);
+		int hi = Math.max(n - most, lo);
+
+		char[] scrambled = new char[n];
+		Result best = null;
+
+		for (int k = 0; k < ORDERS; k++)
+		{
+			int[] order = groupedOrder(solution, counts, rng);
+			int start = rng.nextInt(hi - lo + 1);
+
+			for (int j = 0; j <= hi - lo; j++)
+			{
+				int s = lo + (start + j) % (hi - lo + 1);
+
+				for (int i = 0; i < n; i++)
+				{
+					scrambled[order[(i + s) % n]] = solution[order[i]];
+				}
+
+				int words = this.dictionaryWords(scrambled, lengths);
+				if (best != null && words > best.dictionaryWords)
+				{
+					continue;
+				}
+
+				int exchanges = exchanges(scrambled, targets);
+				if (words == 0 && exchanges >= minExchanges)
+				{
+					return new Result(scrambled, exchanges, 0, exhaustive);
+				}
+
+				if (best == null || words < best.dictionaryWords || exchanges > best.exchanges)
+				{
+					best = new Result(scrambled.clone(), exchanges, words, exhaustive);
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Adds the solutions of the puzzle other than {@code solution} to the
+	 * targets if this engine has a solver, the letters are laid out as a Dabble
+	 * puzzle, and the puzzle has at most {@code SOLUTION_LIMIT} solutions.
+	 * Returns {@code true} if the solutions were added.
+	 */
+	private boolean addOtherSolutions(char[] solution, int[] lengths, List<char[]> targets)
+	{
+		if (this.solver == null || lengths.length != Dabble.NUMBER_OF_WORDS)
+		{
+			return false;
+		}
+
+		int[] counts = new int[ALPHABET_SIZE];
+		for (int i = 0; i < lengths.length; i++)
+		{
+			if (lengths[i] != Dabble.MIN_WORD_LENGTH + i)
+			{
+				return false;
+			}
+		}
+		for (char c : solution)
+		{
+			if (slot(c) == ALPHABET_SIZE)
+			{
+				return false;
+			}
+			counts[slot(c)]++;
+		}
+
+		List<String[]> found = this.solver.solve(counts, SOLUTION_LIMIT + 1);
+		if (found.size() > SOLUTION_LIMIT)
+		{
+			return false;
+		}
+
+		for (String[] words : found)
+		{
+			char[] other = String.join("", words).toCharArray();
+			if (!Arrays.equals(other, solution))
+			{
+				targets.add(other);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the minimum number of exchanges needed to turn the scramble into
+	 * any of the targets.
+	 */
+	private static int exchanges(char[] scrambled, List<char[]> targets)
+	{
+		int min = Integer.MAX_VALUE;
+		for (char[] target : targets)
+		{
+			// each exchange fixes at most two positions, so the exact count is only
+			// needed when this bound is below the best so far
+			if ((mismatches(scrambled, target) + 1) / 2 < min)
+			{
+				min = Math.min(min, minimumExchanges(scrambled, target));
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Returns the slot used to count the letter {@code c}; anything other than a
+	 * lower case letter shares the last slot.
+	 */
+	private static int slot(char c)
+	{
+		return c >= 'a' && c <= 'z' ? c - 'a' : ALPHABET_SIZE;
+	}
+
+	/**
+	 * Returns the positions of the solution ordered so that positions holding the
+	 * same letter are adjacent. The letters appear in a random order and the
+	 * positions of each letter are shuffled.
+	 */
+	private static int[] groupedOrder(char[] solution, int[] counts, Random rng)
+	{
+		int[] letters = new int[counts.length];
+		for (int i = 0; i < letters.length; i++)
+		{
+			letters[i] = i;
+		}
+		shuffle(letters, letters.length, rng);
+
+		int[] start = new int[counts.length];
+		int next = 0;
+		for (int letter : letters)
+		{
+			start[letter] = next;
+			next += counts[letter];
+		}
+
+		int[] order = new int[solution.length];
+		int[] fill = start.clone();
+		for (int i = 0; i < solution.length; i++)
+		{
+			order[fill[slot(solution[i])]++] = i;
+		}
+
+		for (int letter = 0; letter < counts.length; letter++)
+		{
+			shuffle(order, start[letter], counts[letter], rng);
+		}
+
+		return order;
+	}
+
+	private static void shuffle(int[] a, int n, Random rng)
+	{
+		shuffle(a, 0, n, rng);
+	}
+
+	private static void shuffle(int[] a, int from, int n, Random rng)
+	{
+		for (int i = n - 1; i > 0; i--)
+		{
+			int j = rng.nextInt(i + 1);
+			int tmp = a[from + i];
+			a[from + i] = a[from + j];
+			a[from + j] = tmp;
+		}
+	}
+
+	private static int mismatches(char[] a, char[] b)
+	{
+		int n = 0;
+		for (int i = 0; i < a.length; i++)
+		{
+			if (a[i] != b[i])
+			{
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Returns the number of words of the scramble that are in the dictionary.
+	 */
+	private int dictionaryWords(char[] letters, int[] lengths)
+	{
+		int words = 0;
+		int from = 0;
+
+		for (int len : lengths)
+		{
+			if (this.dict.contains(new String(letters, from, len)))
+			{
+				words++;
+			}
+			from += len;
+		}
+
+		return words;
+	}
+
+	/**
+	 * Returns the minimum number of exchanges of two letters needed to turn
+	 * {@code from} into {@code to}. The two arrays must hold the same letters.
+	 *
+	 * <p>
+	 * Every position where the arrays differ is an edge from the letter in
+	 * {@code from} to the letter in {@code to}. An exchange that completes a
+	 * cycle of {@code k} such edges fixes {@code k} positions in {@code k - 1}
+	 * exchanges, so the minimum is the number of differing positions minus the
+	 * largest number of cycles the edges can be split into. Cycles of length two
+	 * are always part of some largest split and are removed first; the rest are
+	 * found by an exhaustive search, which is small because a puzzle has only
+	 * {@code 20} letters.
+	 *
+	 * @param from the letters to rearrange
+	 * @param to   the arrangement to reach
+	 * @return the minimum number of exchanges
+	 * @throws IllegalArgumentException if the arrays do not hold the same letters
+	 */
+	public static int minimumExchanges(char[] from, char[] to)
+	{
+		if (from.length != to.length)
+		{
+			throw new IllegalArgumentException("Expected arrays of equal length");
+		}
+
+		int[][] edges = new int[ALPHABET_SIZE + 1][ALPHABET_SIZE + 1];
+		int[] balance = new int[ALPHABET_SIZE + 1];
+		int mismatches = 0;
+
+		for (int i = 0; i < from.length; i++)
+		{
+			int a = slot(from[i]);
+			int b = slot(to[i]);
+			if (from[i] != to[i])
+			{
+				edges[a][b]++;
+				balance[a]++;
+				balance[b]--;
+				mismatches++;
+			}
+		}
+
+		for (int x : balance)
+		{
+			if (x != 0)
+			{
+				throw new IllegalArgumentException("Expected arrays holding the same letters");
+			}
+		}
+
+		int cycles = 0;
+		for (int a = 0; a < edges.length; a++)
+		{
+			for (int b = a + 1; b < edges.length; b++)
+			{
+				int pairs = Math.min(edges[a][b], edges[b][a]);
+				edges[a][b] -= pairs;
+				edges[b][a] -= pairs;
+				cycles += pairs;
+			}
+		}
+
+		return mismatches - cycles - maxCycles(compress(edges), new HashMap<>());
+	}
+
+	/**
+	 * Returns the edges restricted to the letters that still have an edge.
+	 */
+	private static int[][] compress(int[][] edges)
+	{
+		int[] index = new int[edges.length];
+		int n = 0;
+
+		for (int a = 0; a < edges.length; a++)
+		{
+			index[a] = -1;
+			for (int b = 0; b < edges.length; b++)
+			{
+				if (edges[a][b] > 0)
+				{
+					index[a] = n++;
+					break;
+				}
+			}
+		}
+
+		int[][] result = new int[n][n];
+		for (int a = 0; a < edges.length; a++)
+		{
+			for (int b = 0; b < edges.length; b++)
+			{
+				if (edges[a][b] > 0)
+				{
+					result[index[a]][index[b]] = edges[a][b];
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the largest number of edge-disjoint cycles that the edges can be
+	 * split into. Every letter has as many edges in as out, so the first letter
+	 * with an outgoing edge lies on a cycle of any split; each simple cycle
+	 * through it is tried in turn.
+	 */
+	private static int maxCycles(int[][] edges, Map<String, Integer> memo)
+	{
+		int start = -1;
+		for (int a = 0; a < edges.length && start < 0; a++)
+		{
+			for (int b = 0; b < edges.length; b++)
+			{
+				if (edges[a][b] > 0)
+				{
+					start = a;
+					break;
+				}
+			}
+		}
+
+		if (start < 0)
+		{
+			return 0;
+		}
+
+		char[] flat = new char[edges.length * edges.length];
+		for (int a = 0; a < edges.length; a++)
+		{
+			for (int b = 0; b < edges.length; b++)
+			{
+				flat[a * edges.length + b] = (char) edges[a][b];
+			}
+		}
+		String key = new String(flat);
+		Integer known = memo.get(key);
+		if (known != null)
+		{
+			return known;
+		}
+
+		int[] path = new int[edges.length + 1];
+		path[0] = start;
+		int best = cyclesThrough(edges, path, 1, new boolean[edges.length], memo);
+		memo.put(key, best);
+		return best;
+	}
+
+	private static int cyclesThrough(int[][] edges, int[] path, int depth, boolean[] visited, Map<String, Integer> memo)
+	{
+		int last = path[depth - 1];
+		int best = 0;
+		visited[last] = true;
+
+		for (int next = 0; next < edges.length; next++)
+		{
+			if (edges[last][next] == 0)
+			{
+				continue;
+			}
+
+			if (next == path[0])
+			{
+				edges[last][next]--;
+				for (int i = 1; i < depth; i++)
+				{
+					edges[path[i - 1]][path[i]]--;
+				}
+
+				best = Math.max(best, 1 + maxCycles(edges, memo));
+
+				edges[last][next]++;
+				for (int i = 1; i < depth; i++)
+				{
+					edges[path[i - 1]][path[i]]++;
+				}
+			}
+			else if (!visited[next])
+			{
+				path[depth] = next;
+				best = Math.max(best, cyclesThrough(edges, path, depth + 1, visited, memo));
+			}
+		}
+
+		visited[last] = false;
+		return best;
+	}
+}
@@ -0,0 +1,1053 @@
+package dabble;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dict.Dictionary;
+
+/**
+ * A disk-backed cache of solver results for Dabble puzzles.
+ *
+ * <p>
+ * Solving a puzzle is expensive, so the solutions of a puzzle and the minimum
+ * number of exchanges needed to reach one of them are stored in a segment file
+ * that survives restarts. The two are stored apart because they depend on
+ * different things:
+ *
+ * <ul>
+ * <li>the solutions depend only on the letters of the puzzle, so they are
+ * stored once for each multiset of letters, keyed by a fingerprint of the
+ * sorted letters. At most {@code solutionLimit} of them are stored; a puzzle
+ * made of common letters can have millions.</li>
+ * <li>the minimum number of exchanges depends on where the letters are, so it
+ * is stored for each arrangement, keyed by a fingerprint of the scrambled
+ * letters. It is always the minimum over every solution, found with
+ * {@link DabbleSolver#minimumExchanges(char[])} when not every solution is
+ * stored.</li>
+ * </ul>
+ *
+ * <p>
+ * Every record is also tagged with the {@link Dictionary#version() version} of
+ * the dictionary the solver was built from; records made with a different
+ * dictionary are ignored.
+ *
+ * <p>
+ * The segment file is append-only. Opening a cache maps the file into memory
+ * and scans only the record headers to build in-memory indexes from
+ * fingerprint to file offset; a record is decoded from the mapped file when it
+ * is looked up. The file is mapped in regions of {@code REGION_SIZE} bytes,
+ * each overlapping the next by the size of the largest record, so a record is
+ * always read from a single mapping and the file may grow past 2 GB.
+ *
+ * <p>
+ * New results are served from memory at once and are appended to the file in
+ * batches by a single background thread, so a lookup never waits for the disk.
+ * A batch is written {@code BATCH_DELAY_MILLIS} after the first record that is
+ * not yet written, or as soon as {@code BATCH_SIZE} records are waiting; only
+ * the region holding the end of the file is mapped again. A batch that cannot
+ * be written is cut off the file and kept in memory to be written with the
+ * next batch, and {@link #flush()} reports the failure if it persists. Records
+ * are forced to the disk only by {@code flush()} and {@link #close()}. A last
+ * record left incomplete by a crash is cut off when the cache is next opened;
+ * a record with an impossible length anywhere else means the file is corrupt,
+ * and the cache refuses to open it rather than lose the records after it.
+ *
+ * <p>
+ * Each record starts with:
+ *
+ * <pre>
+ * int    length of the rest of the record
+ * byte   kind of record: 0 for solutions, 1 for exchanges
+ * long   fingerprint
+ * long   dictionary version
+ * </pre>
+ *
+ * <p>
+ * A solutions record goes on with:
+ *
+ * <pre>
+ * byte   1 if every solution is stored, 0 otherwise
+ * int    number of solutions stored
+ * byte[] the sorted letters
+ * byte[] the letters of each solution
+ * </pre>
+ *
+ * <p>
+ * An exchanges record goes on with:
+ *
+ * <pre>
+ * byte[] the scrambled letters
+ * byte   minimum number of exchanges, or -1 if there is no solution
+ * </pre>
+ *
+ * <p>
+ * All methods may be called from several threads. Once the cache is closed,
+ * {@link #lookup(Dabble)}, {@link #get(Dabble)} and {@link #flush()} throw
+ * {@code IllegalStateException}; a {@code get} already running when the cache
+ * is closed returns its result without writing it.
+ */
+public class SolutionCache implements Closeable
+{
+
+	/**
+	 * The default maximum number of solutions stored for a multiset of letters.
+	 */
+	public static final int DEFAULT_SOLUTION_LIMIT = 1000;
+
+	/**
+	 * The largest solution limit a cache accepts, which bounds the size of a
+	 * record.
+	 */
+	public static final int MAX_SOLUTION_LIMIT = 100_000;
+
+	/**
+	 * The number of records waiting to be written that triggers a batch at once.
+	 */
+	public static final int BATCH_SIZE = 256;
+
+	/**
+	 * The time a record waits before it is written if fewer than
+	 * {@code BATCH_SIZE} records are waiting.
+	 */
+	public static final long BATCH_DELAY_MILLIS = 200;
+
+	/**
+	 * The size of the file regions that are mapped into memory.
+	 */
+	public static final int REGION_SIZE = 1 << 26;
+
+	private static final int MAGIC = 0x44414243;
+	private static final int FORMAT = 2;
+	private static final int FILE_HEADER = 8;
+
+	private static final byte SOLUTIONS = 0;
+	private static final byte EXCHANGES = 1;
+
+	private static final int RECORD_HEADER = 4 + 1 + 8 + 8;
+	private static final int SOLUTIONS_HEADER = RECORD_HEADER + 1 + 4;
+	private static final int EXCHANGES_RECORD = RECORD_HEADER + DabbleSolver.TOTAL_LETTERS + 1;
+	private static final int MAX_RECORD = SOLUTIONS_HEADER + DabbleSolver.TOTAL_LETTERS * (1 + MAX_SOLUTION_LIMIT);
+	private static final int BATCH_BYTES = 1 << 20;
+
+	/**
+	 * The result of solving a puzzle.
+	 */
+	public static final class Result
+	{
+		private final Solutions solutions;
+		private final int minExchanges;
+
+		Result(Solutions solutions, int minExchanges)
+		{
+			this.solutions = solutions;
+			this.minExchanges = minExchanges;
+		}
+
+		/**
+		 * Returns the stored solutions of the puzzle. Each solution is a list of
+		 * {@code NUMBER_OF_WORDS} words in ascending order of length. Neither the
+		 * returned list nor the solutions in it can be modified.
+		 *
+		 * @return the stored solutions of the puzzle
+		 */
+		public List<List<String>> getSolutions()
+		{
+			return this.solutions.list;
+		}
+
+		/**
+		 * Returns the minimum number of exchanges needed to turn the scrambled
+		 * words into any solution of the puzzle, including solutions that are not
+		 * stored, or {@code -1} if there is no solution.
+		 *
+		 * @return the minimum number of exchanges needed to solve the puzzle, or
+		 *         {@code -1}
+		 */
+		public int getMinExchanges()
+		{
+			return this.minExchanges;
+		}
+
+		/**
+		 * Returns {@code true} if every solution of the puzzle is stored,
+		 * {@code false} if the solutions were cut off at the solution limit.
+		 *
+		 * @return {@code true} if every solution of the puzzle is stored
+		 */
+		public boolean isComplete()
+		{
+			return this.solutions.complete;
+		}
+	}
+
+	/**
+	 * The stored solutions of a multiset of letters.
+	 */
+	private static final class Solutions
+	{
+		final List<List<String>> list;
+		final boolean complete;
+
+		Solutions(List<String[]> solutions, boolean complete)
+		{
+			List<List<String>> copies = new ArrayList<>(solutions.size());
+			for (String[] solution : solutions)
+			{
+				copies.add(Collections.unmodifiableList(Arrays.asList(solution.clone())));
+			}
+
+			this.list = Collections.unmodifiableList(copies);
+			this.complete = complete;
+		}
+	}
+
+	/**
+	 * A record that has been computed but not yet written to the file. A
+	 * solutions record has {@code solutions} and the sorted letters; an exchanges
+	 * record has {@code minExchanges} and the scrambled letters.
+	 */
+	private static final class Pending
+	{
+		final byte kind;
+		final long fingerprint;
+		final char[] letters;
+		final Solutions solutions;
+		final int minExchanges;
+
+		Pending(byte kind, long fingerprint, char[] letters, Solutions solutions, int minExchanges)
+		{
+			this.kind = kind;
+			this.fingerprint = fingerprint;
+			this.letters = letters;
+			this.solutions = solutions;
+			this.minExchanges = minExchanges;
+		}
+
+		int size()
+		{
+			if (this.kind == EXCHANGES)
+			{
+				return EXCHANGES_RECORD;
+			}
+			return SOLUTIONS_HEADER + DabbleSolver.TOTAL_LETTERS * (1 + this.solutions.list.size());
+		}
+	}
+
+	private final Path file;
+	private final DabbleSolver solver;
+	private final long dictVersion;
+	private final int solutionLimit;
+	private final FileChannel channel;
+
+	/**
+	 * The regions of the file up to the end of the last record written. Region
+	 * {@code k} starts at offset {@code k * REGION_SIZE} and extends up to
+	 * {@code MAX_RECORD} bytes into the next region. The array is replaced, never
+	 * modified, after each batch; the buffers are read only with absolute get
+	 * methods.
+	 */
+	private volatile MappedByteBuffer[] regions;
+
+	/**
+	 * The offset just past the last record written. Used only by the writer
+	 * thread once the cache is open.
+	 */
+	private long end;
+
+	/**
+	 * The failure of the last batch, or {@code null} if it was written.
+	 */
+	private volatile IOException failure;
+
+	private volatile boolean closed;
+
+	private final Map<Long, Long> solutionsIndex;
+	private final Map<Long, Long> exchangesIndex;
+	private final Map<Long, Pending> pendingSolutions;
+	private final Map<Long, Pending> pendingExchanges;
+	private final ConcurrentLinkedDeque<Pending> queue;
+	private final AtomicInteger queued;
+	private final AtomicBoolean flushScheduled;
+	private final ScheduledExecutorService writer;
+
+	/**
+	 * Opens the cache stored in the specified file, creating the file if it does
+	 * not exist. Puzzles are solved with the specified solver, and at most
+	 * {@code DEFAULT_SOLUTION_LIMIT} solutions are stored for each multiset of
+	 * letters.
+	 *
+	 * @param file   the segment file
+	 * @param solver the solver used on a cache miss
+	 * @throws IOException if the file cannot be opened, is not a segment file or
+	 *                     is corrupt
+	 */
+	public SolutionCache(Path file, DabbleSolver solver) throws IOException
+	{
+		this(file, solver, DEFAULT_SOLUTION_LIMIT);
+	}
+
+	/**
+	 * Opens the cache stored in the specified file, creating the file if it does
+	 * not exist. Puzzles are solved with the specified solver, and at most
+	 * {@code solutionLimit} solutions are stored for each multiset of letters.
+	 *
+	 * @param file          the segment file
+	 * @param solver        the solver used on a cache miss
+	 * @param solutionLimit the maximum number of solutions stored for a multiset
+	 *                      of letters
+	 * @throws IOException              if the file cannot be opened, is not a
+	 *                                  segment file or is corrupt
+	 * @throws IllegalArgumentException if {@code solutionLimit} is less than 1 or
+	 *                                  greater than {@code MAX_SOLUTION_LIMIT}
+	 */
+	public SolutionCache(Path file, DabbleSolver solver, int solutionLimit) throws IOException
+	{
+		if (solutionLimit < 1 || solutionLimit > MAX_SOLUTION_LIMIT)
+		{
+			throw new IllegalArgumentException("Expected solution limit in [1, " + MAX_SOLUTION_LIMIT + "] got " + solutionLimit);
+		}
+
+		this.file = file;
+		this.solver = solver;
+		this.dictVersion = solver.dictionaryVersion();
+		this.solutionLimit = solutionLimit;
+		this.solutionsIndex = new ConcurrentHashMap<>();
+		this.exchangesIndex = new ConcurrentHashMap<>();
+		this.pendingSolutions = new ConcurrentHashMap<>();
+		this.pendingExchanges = new ConcurrentHashMap<>();
+		this.queue = new ConcurrentLinkedDeque<>();
+		this.queued = new AtomicInteger();
+		this.flushScheduled = new AtomicBoolean();
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try
+		{
+			if (this.channel.size() == 0)
+			{
+				ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+				header.putInt(MAGIC).putInt(FORMAT).flip();
+				this.channel.write(header, 0);
+			}
+
+			long size = this.channel.size();
+			this.regions = this.map(new MappedByteBuffer[0], size);
+
+			if (size < FILE_HEADER || this.regions[0].getInt(0) != MAGIC || this.regions[0].getInt(4) != FORMAT)
+			{
+				throw new IOException(file + " is not a solution cache segment file");
+			}
+
+			this.end = this.scan(size);
+			if (this.end < size)
+			{
+				// drop a last record that was cut short
+				this.channel.truncate(this.end);
+				this.regions = this.map(new MappedByteBuffer[0], this.end);
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			this.channel.close();
+			throw e;
+		}
+
+		this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "SolutionCache writer");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Returns the regions mapping the file up to {@code end}, reusing the
+	 * regions of {@code old} that already map all they can.
+	 */
+	private MappedByteBuffer[] map(MappedByteBuffer[] old, long end) throws IOException
+	{
+		int n = (int) ((end + REGION_SIZE - 1) / REGION_SIZE);
+		MappedByteBuffer[] result = Arrays.copyOf(old, n);
+
+		for (int k = 0; k < n; k++)
+		{
+			long start = (long) k * REGION_SIZE;
+			int size = (int) Math.min(end - start, REGION_SIZE + MAX_RECORD);
+			if (result[k] == null || result[k].limit() < size)
+			{
+				result[k] = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+			}
+		}
+		return result;
+	}
+
+	private MappedByteBuffer region(long offset)
+	{
+		return this.regions[(int) (offset / REGION_SIZE)];
+	}
+
+	/**
+	 * Indexes the valid records of the current dictionary version and returns
+	 * the offset just past the last record that fits in the file. A record whose
+	 * kind or length does not match its contents is skipped. A length that no
+	 * record can have is taken for the end of the records only if the rest of
+	 * the file is zeros, as the file system may leave after a crash.
+	 *
+	 * @throws IOException if a record has a length no record can have
+	 */
+	private long scan(long size) throws IOException
+	{
+		int n = DabbleSolver.TOTAL_LETTERS;
+		long offset = FILE_HEADER;
+
+		while (offset + 4 <= size)
+		{
+			MappedByteBuffer buf = this.region(offset);
+			int at = (int) (offset % REGION_SIZE);
+			int length = buf.getInt(at);
+
+			if (length < EXCHANGES_RECORD - 4 || length > MAX_RECORD - 4)
+			{
+				if (this.zeros(offset, size))
+				{
+					break;
+				}
+				throw new IOException(this.file + " has a corrupt record at offset " + offset);
+			}
+
+			long next = offset + 4 + length;
+			if (next > size)
+			{
+				// the last record was cut short
+				break;
+			}
+
+			byte kind = buf.get(at + 4);
+			long fingerprint = buf.getLong(at + 5);
+			boolean current = buf.getLong(at + 13) == this.dictVersion;
+
+			if (kind == SOLUTIONS)
+			{
+				int count = buf.getInt(at + RECORD_HEADER + 1);
+				boolean valid = count >= 0 && count <= MAX_SOLUTION_LIMIT
+						&& length == SOLUTIONS_HEADER - 4 + n * (1 + count);
+
+				if (valid && current)
+				{
+					// later records replace earlier ones
+					this.solutionsIndex.put(fingerprint, offset);
+				}
+			}
+			else if (kind == EXCHANGES && length == EXCHANGES_RECORD - 4 && current)
+			{
+				this.exchangesIndex.put(fingerprint, offset);
+			}
+			offset = next;
+		}
+
+		return offset;
+	}
+
+	/**
+	 * Returns {@code true} if every byte of the file from {@code offset} to
+	 * {@code size} is zero.
+	 */
+	private boolean zeros(long offset, long size)
+	{
+		for (long pos = offset; pos < size; pos++)
+		{
+			if (this.region(pos).get((int) (pos % REGION_SIZE)) != 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the fingerprint of the specified letters.
+	 *
+	 * @param letters the scrambled words concatenated in ascending order of
+	 *                length, or their letters sorted
+	 * @return the fingerprint of the letters
+	 */
+	public static long fingerprint(char[] letters)
+	{
+		// 64-bit FNV-1a
+		long h = 0xcbf29ce484222325L;
+		for (char c : letters)
+		{
+			h ^= c;
+			h *= 0x100000001b3L;
+		}
+		return h;
+	}
+
+	private static char[] letters(Map<Integer, String> words)
+	{
+		StringBuilder sb = new StringBuilder(DabbleSolver.TOTAL_LETTERS);
+		for (int len = Dabble.MIN_WORD_LENGTH; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			sb.append(words.get(len));
+		}
+
+		char[] result = new char[sb.length()];
+		sb.getChars(0, result.length, result, 0);
+		return result;
+	}
+
+	private static char[] sorted(char[] letters)
+	{
+		char[] result = letters.clone();
+		Arrays.sort(result);
+		return result;
+	}
+
+	private void checkOpen()
+	{
+		if (this.closed)
+		{
+			throw new IllegalStateException("Expected an open cache got a closed one");
+		}
+	}
+
+	/**
+	 * Returns the cached result for the specified puzzle, or {@code null} if the
+	 * puzzle has not been solved with the current dictionary.
+	 *
+	 * @param puzzle a puzzle
+	 * @return the cached result for the puzzle, or {@code null}
+	 * @throws IllegalStateException if the cache is closed
+	 */
+	public Result lookup(Dabble puzzle)
+	{
+		this.checkOpen();
+		char[] scrambled = letters(puzzle.getScrambledWords());
+		char[] sorted = sorted(scrambled);
+
+		Solutions solutions = this.lookupSolutions(fingerprint(sorted), sorted);
+		Integer minExchanges = this.lookupExchanges(fingerprint(scrambled), scrambled);
+		if (solutions == null || minExchanges == null)
+		{
+			return null;
+		}
+		return new Result(solutions, minExchanges);
+	}
+
+	private Solutions lookupSolutions(long fingerprint, char[] sorted)
+	{
+		Pending p = this.pendingSolutions.get(fingerprint);
+		if (p != null && Arrays.equals(p.letters, sorted))
+		{
+			return p.solutions;
+		}
+
+		Long offset = this.solutionsIndex.get(fingerprint);
+		if (offset == null)
+		{
+			return null;
+		}
+		return this.decodeSolutions(offset, sorted);
+	}
+
+	private Integer lookupExchanges(long fingerprint, char[] scrambled)
+	{
+		Pending p = this.pendingExchanges.get(fingerprint);
+		if (p != null && Arrays.equals(p.letters, scrambled))
+		{
+			return p.minExchanges;
+		}
+
+		Long offset = this.exchangesIndex.get(fingerprint);
+		if (offset == null)
+		{
+			return null;
+		}
+		return this.decodeExchanges(offset, scrambled);
+	}
+
+	/**
+	 * Returns the result for the specified puzzle, solving the puzzle if it is
+	 * not in the cache. The solutions are found once for each multiset of
+	 * letters, and the minimum number of exchanges once for each arrangement of
+	 * them. Newly computed records are written to the file in the background
+	 * with the next batch.
+	 *
+	 * @param puzzle a puzzle
+	 * @return the result for the puzzle
+	 * @throws IllegalStateException if the cache is closed
+	 */
+	public Result get(Dabble puzzle)
+	{
+		this.checkOpen();
+		char[] scrambled = letters(puzzle.getScrambledWords());
+		char[] sorted = sorted(scrambled);
+		long sortedFingerprint = fingerprint(sorted);
+		long scrambledFingerprint = fingerprint(scrambled);
+
+		Solutions solutions = this.lookupSolutions(sortedFingerprint, sorted);
+		if (solutions == null)
+		{
+			solutions = this.solve(sorted);
+			Pending p = new Pending(SOLUTIONS, sortedFingerprint, sorted, solutions, 0);
+			this.pendingSolutions.put(sortedFingerprint, p);
+			this.enqueue(p);
+		}
+
+		Integer minExchanges = this.lookupExchanges(scrambledFingerprint, scrambled);
+		if (minExchanges == null)
+		{
+			minExchanges = this.minimumExchanges(scrambled, solutions);
+			Pending p = new Pending(EXCHANGES, scrambledFingerprint, scrambled, null, minExchanges);
+			this.pendingExchanges.put(scrambledFingerprint, p);
+			this.enqueue(p);
+		}
+
+		return new Result(solutions, minExchanges);
+	}
+
+	private void enqueue(Pending p)
+	{
+		this.queue.add(p);
+
+		try
+		{
+			if (this.queued.incrementAndGet() == BATCH_SIZE)
+			{
+				this.writer.execute(this::writeBatch);
+			}
+			else if (this.flushScheduled.compareAndSet(false, true))
+			{
+				this.writer.schedule(this::writeBatch, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		}
+		catch (RejectedExecutionException e)
+		{
+			// the cache was closed while the puzzle was being solved; the record is
+			// served but never written
+		}
+	}
+
+	private Solutions solve(char[] sorted)
+	{
+		List<String> words = new ArrayList<>();
+		words.add(new String(sorted));
+		List<String[]> solutions = this.solver.solve(DabbleSolver.letterCounts(words), this.solutionLimit + 1);
+
+		boolean complete = solutions.size() <= this.solutionLimit;
+		return new Solutions(complete ? solutions : solutions.subList(0, this.solutionLimit), complete);
+	}
+
+	/**
+	 * Returns the minimum number of exchanges from the scrambled letters to any
+	 * solution, or -1 if there is none. Stored solutions are compared directly
+	 * when they are all of them; otherwise the closest one may not be stored, so
+	 * the solver searches for it.
+	 */
+	private int minimumExchanges(char[] scrambled, Solutions solutions)
+	{
+		if (!solutions.complete)
+		{
+			return this.solver.minimumExchanges(scrambled);
+		}
+
+		int min = -1;
+		for (List<String> solution : solutions.list)
+		{
+			int exchanges = ScrambleEngine.minimumExchanges(scrambled, String.join("", solution).toCharArray());
+			if (min < 0 || exchanges < min)
+			{
+				min = exchanges;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Returns {@code true} if the letters stored at {@code pos} are
+	 * {@code letters}; different letters can have the same fingerprint.
+	 */
+	private static boolean matches(MappedByteBuffer buf, int pos, char[] letters)
+	{
+		if (letters.length != DabbleSolver.TOTAL_LETTERS)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < letters.length; i++)
+		{
+			if (buf.get(pos + i) != letters[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the solutions in the solutions record at {@code offset}, or
+	 * {@code null} if the record is for different letters. Only records that
+	 * {@link #scan(long)} found valid are indexed.
+	 */
+	private Solutions decodeSolutions(long offset, char[] sorted)
+	{
+		MappedByteBuffer buf = this.region(offset);
+		int at = (int) (offset % REGION_SIZE);
+		int n = DabbleSolver.TOTAL_LETTERS;
+		int pos = at + SOLUTIONS_HEADER;
+
+		if (!matches(buf, pos, sorted))
+		{
+			return null;
+		}
+		pos += n;
+
+		boolean complete = buf.get(at + RECORD_HEADER) == 1;
+		int count = buf.getInt(at + RECORD_HEADER + 1);
+		List<String[]> solutions = new ArrayList<>(count);
+		char[] letters = new char[n];
+
+		for (int k = 0; k < count; k++)
+		{
+			for (int i = 0; i < n; i++)
+			{
+				letters[i] = (char) buf.get(pos++);
+			}
+
+			String[] solution = new String[Dabble.NUMBER_OF_WORDS];
+			int from = 0;
+			for (int len = Dabble.MIN_WORD_LENGTH; len <= Dabble.MAX_WORD_LENGTH; len++)
+			{
+				solution[len - Dabble.MIN_WORD_LENGTH] = new String(letters, from, len);
+				from += len;
+			}
+			solutions.add(solution);
+		}
+
+		return new Solutions(solutions, complete);
+	}
+
+	/**
+	 * Returns the minimum number of exchanges in the exchanges record at
+	 * {@code offset}, or {@code null} if the record is for a different
+	 * arrangement.
+	 */
+	private Integer decodeExchanges(long offset, char[] scrambled)
+	{
+		MappedByteBuffer buf = this.region(offset);
+		int at = (int) (offset % REGION_SIZE);
+
+		if (!matches(buf, at + RECORD_HEADER, scrambled))
+		{
+			return null;
+		}
+		return (int) buf.get(at + RECORD_HEADER + DabbleSolver.TOTAL_LETTERS);
+	}
+
+	private static void encode(ByteBuffer out, Pending p, long dictVersion)
+	{
+		out.putInt(p.size() - 4);
+		out.put(p.kind);
+		out.putLong(p.fingerprint);
+		out.putLong(dictVersion);
+
+		if (p.kind == EXCHANGES)
+		{
+			for (char c : p.letters)
+			{
+				out.put((byte) c);
+			}
+			out.put((byte) p.minExchanges);
+			return;
+		}
+
+		out.put((byte) (p.solutions.complete ? 1 : 0));
+		out.putInt(p.solutions.list.size());
+
+		for (char c : p.letters)
+		{
+			out.put((byte) c);
+		}
+
+		for (List<String> solution : p.solutions.list)
+		{
+			for (String word : solution)
+			{
+				for (int i = 0; i < word.length(); i++)
+				{
+					out.put((byte) word.charAt(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the queued records, keeping the failure for {@link #flush()}. Runs
+	 * on the writer thread.
+	 */
+	private void writeBatch()
+	{
+		try
+		{
+			this.writeQueued();
+		}
+		catch (IOException e)
+		{
+			// kept in this.failure; the records stay queued and in memory
+		}
+	}
+
+	/**
+	 * Appends every queued record to the file, in writes of about
+	 * {@code BATCH_BYTES}, and points the indexes at the new records. Runs on the
+	 * writer thread.
+	 */
+	private void writeQueued() throws IOException
+	{
+		this.flushScheduled.set(false);
+
+		while (true)
+		{
+			List<Pending> batch = new ArrayList<>();
+			int size = 0;
+			Pending p;
+			while (size < BATCH_BYTES && (p = this.queue.poll()) != null)
+			{
+				batch.add(p);
+				size += p.size();
+			}
+
+			if (batch.isEmpty())
+			{
+				this.failure = null;
+				return;
+			}
+			this.queued.addAndGet(-batch.size());
+
+			try
+			{
+				this.append(batch, size);
+			}
+			catch (IOException | RuntimeException e)
+			{
+				for (int i = batch.size() - 1; i >= 0; i--)
+				{
+					this.queue.addFirst(batch.get(i));
+				}
+				this.queued.addAndGet(batch.size());
+
+				IOException wrapped = e instanceof IOException ? (IOException) e : new IOException(e);
+				this.failure = wrapped;
+				throw wrapped;
+			}
+		}
+	}
+
+	/**
+	 * Appends the records of a batch at the end of the file, maps the new end of
+	 * the file, and indexes the records. If any step fails the file is cut back
+	 * to where it ended, so that no partial record is left behind.
+	 */
+	private void append(List<Pending> batch, int size) throws IOException
+	{
+		long start = this.end;
+		ByteBuffer out = ByteBuffer.allocate(size);
+		long[] offsets = new long[batch.size()];
+
+		for (int i = 0; i < batch.size(); i++)
+		{
+			offsets[i] = start + out.position();
+			encode(out, batch.get(i), this.dictVersion);
+		}
+		out.flip();
+
+		try
+		{
+			if (this.channel.size() > start)
+			{
+				// left over by an earlier batch that could not be cut back
+				this.channel.truncate(start);
+			}
+
+			long pos = start;
+			while (out.hasRemaining())
+			{
+				pos += this.channel.write(out, pos);
+			}
+			this.regions = this.map(this.regions, pos);
+			this.end = pos;
+		}
+		catch (IOException | RuntimeException e)
+		{
+			try
+			{
+				this.channel.truncate(start);
+			}
+			catch (IOException | RuntimeException suppressed)
+			{
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+
+		for (int i = 0; i < batch.size(); i++)
+		{
+			Pending q = batch.get(i);
+			if (q.kind == SOLUTIONS)
+			{
+				this.solutionsIndex.put(q.fingerprint, offsets[i]);
+				this.pendingSolutions.remove(q.fingerprint, q);
+			}
+			else
+			{
+				this.exchangesIndex.put(q.fingerprint, offsets[i]);
+				this.pendingExchanges.remove(q.fingerprint, q);
+			}
+		}
+	}
+
+	/**
+	 * Writes every record computed so far to the file, forces the file to the
+	 * disk, and waits for the write to finish. Records that an earlier batch
+	 * failed to write are written again.
+	 *
+	 * @throws IOException           if the records cannot be written, with the
+	 *                               failure of the earlier batch, if any, as a
+	 *                               suppressed exception; the records stay in
+	 *                               memory and are written again by the next
+	 *                               batch
+	 * @throws IllegalStateException if the cache is closed
+	 */
+	public void flush() throws IOException
+	{
+		this.checkOpen();
+		this.writeAndForce();
+	}
+
+	private void writeAndForce() throws IOException
+	{
+		Future<?> done = this.writer.submit(() -> {
+			IOException earlier = this.failure;
+			try
+			{
+				this.writeQueued();
+				this.channel.force(false);
+			}
+			catch (IOException e)
+			{
+				if (earlier != null && earlier != e)
+				{
+					e.addSuppressed(earlier);
+				}
+				throw e;
+			}
+			return null;
+		});
+
+		try
+		{
+			done.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while flushing", e);
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof IOException)
+			{
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the number of arrangements of letters whose result is in this
+	 * cache for the current dictionary.
+	 *
+	 * @return the number of results in this cache
+	 */
+	public int size()
+	{
+		int size = this.exchangesIndex.size();
+		for (Long fingerprint : this.pendingExchanges.keySet())
+		{
+			if (!this.exchangesIndex.containsKey(fingerprint))
+			{
+				size++;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Writes every record computed so far to the file and closes the file.
+	 * Closing a closed cache has no effect.
+	 *
+	 * @throws IOException if the records cannot be written or the file cannot be
+	 *                     closed; records that could not be written are lost
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if (this.closed)
+		{
+			return;
+		}
+		this.closed = true;
+
+		try
+		{
+			this.writeAndForce();
+		}
+		finally
+		{
+			this.writer.shutdownNow();
+			this.channel.close();
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		Path file = Paths.get(args.length > 0 ? args[0] : "solutions.seg");
+		UniqueDabbleGenerator gen = new UniqueDabbleGenerator();
+		List<Dabble> puzzles = gen.generate(args.length > 1 ? Integer.parseInt(args[1]) : 1000);
+
+		try (SolutionCache cache = new SolutionCache(file, gen.getSolver()))
+		{
+			System.out.println("opened with " + cache.size() + " results");
+
+			long start = System.nanoTime();
+			for (Dabble d : puzzles)
+			{
+				cache.get(d);
+			}
+			long elapsed = System.nanoTime() - start;
+
+			Dabble d = puzzles.get(0);
+			System.out.println(d + " needs " + cache.get(d).getMinExchanges() + " exchanges");
+			System.out.printf("%d puzzles in %.1f ms, %d results%n", puzzles.size(), elapsed / 1e6, cache.size());
+		}
+	}
+}
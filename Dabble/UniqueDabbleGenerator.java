@@ -0,0 +1,423 @@
+package dabble;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import dict.Dictionary;
+
+/**
+ * A generator of Dabble puzzles that have exactly one solution.
+ *
+ * <p>
+ * A puzzle produced by {@link Dabble#Dabble()} often has several solutions
+ * because {@link Dabble#isSolved()} accepts any five dictionary words. This
+ * generator draws candidate solution words at random and keeps only the
+ * candidates whose combined letters can be partitioned into dictionary words
+ * of lengths 2, 3, 4, 5, and 6 in exactly one way.
+ *
+ * <p>
+ * Sets of words made of common letters can almost always be rearranged into
+ * some other set of words, so words are drawn from the rarest
+ * {@code rareFraction} of the words of each length, ranked by the mean
+ * log-frequency of their letters. Abbreviations and Roman numerals, which the
+ * dictionary contains and which are made of unusual letters, are never drawn.
+ *
+ * <p>
+ * Candidates are rejected as cheaply as possible. Only words that have no
+ * dictionary anagram of the same length are ever drawn (a word with an anagram
+ * immediately gives a second solution). The puzzle is built one word at a time
+ * and each new word is checked against the words already drawn, smallest
+ * combinations first, so that most bad words are rejected by solving a few
+ * letters rather than the whole puzzle. The letter counts of each combination
+ * are kept as the words are drawn, checks of pairs of words are remembered,
+ * and each search stops at the first alternative partition it finds.
+ *
+ * <p>
+ * The generator uses the solver shared by the classes of the package unless it
+ * is given one, so creating it does not build the solver's tries again.
+ *
+ * <p>
+ * A generator is immutable after construction and may be shared between
+ * threads.
+ */
+public class UniqueDabbleGenerator
+{
+
+	/**
+	 * The default fraction of the words of each length that are candidates.
+	 */
+	public static final double DEFAULT_RARE_FRACTION = 0.5;
+
+	/**
+	 * The number of draws for one word before a puzzle is started over.
+	 */
+	public static final int WORD_ATTEMPTS = 50;
+
+	/**
+	 * The number of draws after which {@link #nextWords(Random)} gives up.
+	 */
+	public static final int MAX_ATTEMPTS = 1_000_000;
+
+	private static final Pattern VOWEL = Pattern.compile(".*[aeiou].*|.+y.*");
+
+	private static final Pattern ROMAN_NUMERAL = Pattern.compile("m{0,4}(cm|cd|d?c{0,3})(xc|xl|l?x{0,3})(ix|iv|v?i{0,3})");
+
+	private final DabbleSolver solver;
+
+	/**
+	 * The candidate words of each length, i.e., the plain words that have no
+	 * other dictionary anagram of the same length.
+	 */
+	private final String[][] candidates;
+
+	/**
+	 * The letter counts of each candidate word; {@code counts[len][i]} are the
+	 * counts of {@code candidates[len][i]}.
+	 */
+	private final int[][][] counts;
+
+	/**
+	 * The outcome of checking each pair of candidate words, filled in as pairs
+	 * are drawn: {@code pairs[shorter][longer][i * m + j]}, where {@code m} is the
+	 * number of candidates of length {@code longer}, is {@code UNKNOWN},
+	 * {@code UNIQUE}, or {@code NOT_UNIQUE} for the {@code i}th candidate of
+	 * length {@code shorter} and the {@code j}th of length {@code longer}. Threads
+	 * may race to fill an entry, but they write the same value.
+	 */
+	private final byte[][][] pairs;
+
+	private static final byte UNKNOWN = 0;
+	private static final byte UNIQUE = 1;
+	private static final byte NOT_UNIQUE = 2;
+
+	/**
+	 * Initializes a generator that uses the dictionary of the {@code Dabble} class
+	 * and the default fraction of candidate words.
+	 */
+	public UniqueDabbleGenerator()
+	{
+		this(Dabble.SOLVER, DEFAULT_RARE_FRACTION);
+	}
+
+	/**
+	 * Initializes a generator that draws words from the rarest
+	 * {@code rareFraction} of the words of each length in the specified
+	 * dictionary. A smaller fraction yields unique puzzles faster but draws them
+	 * from fewer, more unusual, words.
+	 *
+	 * @param dict         the dictionary that puzzle words are taken from
+	 * @param rareFraction the fraction of the words of each length to draw from
+	 * @throws IllegalArgumentException if {@code rareFraction} is not in the range
+	 *                                  {@code (0, 1]}
+	 */
+	public UniqueDabbleGenerator(Dictionary dict, double rareFraction)
+	{
+		this(new DabbleSolver(dict), rareFraction);
+	}
+
+	/**
+	 * Initializes a generator that draws words from the rarest
+	 * {@code rareFraction} of the words of each length known to the specified
+	 * solver.
+	 *
+	 * @param solver       the solver whose words puzzles are made of
+	 * @param rareFraction the fraction of the words of each length to draw from
+	 * @throws IllegalArgumentException if {@code rareFraction} is not in the range
+	 *                                  {@code (0, 1]}
+	 */
+	public UniqueDabbleGenerator(DabbleSolver solver, double rareFraction)
+	{
+		if (!(rareFraction > 0 && rareFraction <= 1))
+		{
+			throw new IllegalArgumentException("Expected fraction in (0, 1] got " + rareFraction);
+		}
+
+		this.solver = solver;
+		this.candidates = new String[Dabble.MAX_WORD_LENGTH + 1][];
+		this.counts = new int[Dabble.MAX_WORD_LENGTH + 1][][];
+		this.pairs = new byte[Dabble.MAX_WORD_LENGTH + 1][Dabble.MAX_WORD_LENGTH + 1][];
+
+		List<String> all = new ArrayList<>();
+		List<List<String>> byLength = new ArrayList<>();
+		for (int len = 0; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			byLength.add(solver.words(len));
+			all.addAll(byLength.get(len));
+		}
+		int[] freq = DabbleSolver.letterCounts(all);
+
+		for (int len = Dabble.MIN_WORD_LENGTH; len <= Dabble.MAX_WORD_LENGTH; len++)
+		{
+			List<String> words = new ArrayList<>();
+			Map<String, Double> commonness = new HashMap<>();
+			for (String word : byLength.get(len))
+			{
+				if (solver.anagramCount(word) == 1 && isPlainWord(word))
+				{
+					words.add(word);
+					commonness.put(word, commonness(word, freq));
+				}
+			}
+
+			words.sort(Comparator.comparingDouble(commonness::get));
+			int n = Math.max(1, (int) Math.ceil(words.size() * rareFraction));
+			this.candidates[len] = words.subList(0, n).toArray(new String[0]);
+			this.counts[len] = new int[n][];
+			for (int i = 0; i < n; i++)
+			{
+				this.counts[len][i] = DabbleSolver.letterCounts(Arrays.asList(this.candidates[len][i]));
+			}
+		}
+
+		for (int shorter = Dabble.MIN_WORD_LENGTH; shorter <= Dabble.MAX_WORD_LENGTH; shorter++)
+		{
+			for (int longer = shorter + 1; longer <= Dabble.MAX_WORD_LENGTH; longer++)
+			{
+				this.pairs[shorter][longer] = new byte[this.candidates[shorter].length * this.candidates[longer].length];
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code false} if the word is an abbreviation or a Roman numeral.
+	 * Abbreviations such as {@code qt} or {@code blvd} are recognized by having
+	 * no vowel, counting {@code y} as a vowel only after the first letter; Roman
+	 * numerals such as {@code xxviii} by their strict form.
+	 */
+	static boolean isPlainWord(String word)
+	{
+		return VOWEL.matcher(word).matches() && !ROMAN_NUMERAL.matcher(word).matches();
+	}
+
+	/**
+	 * Returns the mean log-frequency of the letters of a word.
+	 */
+	private static double commonness(String word, int[] freq)
+	{
+		double sum = 0;
+		for (int i = 0; i < word.length(); i++)
+		{
+			sum += Math.log(freq[word.charAt(i) - 'a']);
+		}
+		return sum / word.length();
+	}
+
+	/**
+	 * Returns the solver used by this generator.
+	 *
+	 * @return the solver used by this generator
+	 */
+	public DabbleSolver getSolver()
+	{
+		return this.solver;
+	}
+
+	/**
+	 * Returns {@code true} if the specified words are the only solution of the
+	 * puzzle made from their letters, {@code false} otherwise.
+	 *
+	 * @param words NUMBER_OF_WORDS words in ascending order of length
+	 * @return {@code true} if the puzzle made from the words has exactly one
+	 *         solution
+	 */
+	public boolean isUnique(String... words)
+	{
+		return this.solver.countSolutions(DabbleSolver.letterCounts(Arrays.asList(words)), 2) == 1;
+	}
+
+	/**
+	 * Returns the solution words of a randomly chosen puzzle that has exactly one
+	 * solution. The words are in ascending order of length.
+	 *
+	 * <p>
+	 * The words are drawn one at a time, shortest first. If the letters of some
+	 * of the words drawn so far can be split into words of the same lengths in a
+	 * second way, then so can the letters of any puzzle that contains them, so
+	 * the last word is drawn again at once instead of drawing the remaining
+	 * words. After {@code WORD_ATTEMPTS} failed draws for one word
+	 * the puzzle is started over.
+	 *
+	 * @param rng the source of randomness
+	 * @return the solution words of a puzzle having a unique solution
+	 * @throws IllegalStateException if no puzzle is found in
+	 *                               {@code MAX_ATTEMPTS} draws, which happens when
+	 *                               the candidate words admit no unique puzzle
+	 */
+	public String[] nextWords(Random rng)
+	{
+		String[] words = new String[Dabble.NUMBER_OF_WORDS];
+		int[] drawn = new int[Dabble.NUMBER_OF_WORDS];
+		int[][] subsetCounts = new int[1 << Dabble.NUMBER_OF_WORDS][];
+		subsetCounts[0] = new int[26];
+		int len = Dabble.MIN_WORD_LENGTH;
+		int failures = 0;
+
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++)
+		{
+			int i = rng.nextInt(this.candidates[len].length);
+			words[len - Dabble.MIN_WORD_LENGTH] = this.candidates[len][i];
+			drawn[len - Dabble.MIN_WORD_LENGTH] = i;
+
+			if (this.isUniqueWith(words, drawn, len, subsetCounts))
+			{
+				if (len == Dabble.MAX_WORD_LENGTH)
+				{
+					return words;
+				}
+				len++;
+				failures = 0;
+			}
+			else if (++failures == WORD_ATTEMPTS)
+			{
+				len = Dabble.MIN_WORD_LENGTH;
+				failures = 0;
+			}
+		}
+
+		throw new IllegalStateException("No unique puzzle found in " + MAX_ATTEMPTS + " attempts");
+	}
+
+	/**
+	 * Returns {@code true} if the words of lengths {@code MIN_WORD_LENGTH} to
+	 * {@code len} have a unique partition, given that the words shorter than
+	 * {@code len} do. Every subset of the words that includes the newest word is
+	 * checked, smallest first: the small subsets are cheap to solve, and pairs
+	 * are looked up in {@code pairs} once they have been solved, so most failures
+	 * are caught before the full set of letters is searched.
+	 *
+	 * <p>
+	 * Because the smaller subsets are checked first, a second partition of a
+	 * subset cannot share a word with the drawn words: removing the shared word
+	 * would leave a second partition of a smaller subset. The search therefore
+	 * skips the drawn words and stops at the first partition it finds.
+	 *
+	 * <p>
+	 * {@code subsetCounts[s]} holds the letter counts of the subset {@code s} of
+	 * the words drawn so far, where bit {@code i} stands for the word of length
+	 * {@code MIN_WORD_LENGTH + i}. The counts of each subset that includes the
+	 * newest word are those of the same subset without it plus the counts of the
+	 * newest word; the others are kept from the shorter words.
+	 */
+	private boolean isUniqueWith(String[] words, int[] drawn, int len, int[][] subsetCounts)
+	{
+		int last = len - Dabble.MIN_WORD_LENGTH;
+		int newest = 1 << last;
+		int subsets = newest << 1;
+		int[] wordCounts = this.counts[len][drawn[last]];
+
+		for (int subset = newest; subset < subsets; subset++)
+		{
+			int[] without = subsetCounts[subset ^ newest];
+			int[] counts = subsetCounts[subset];
+			if (counts == null)
+			{
+				counts = new int[wordCounts.length];
+				subsetCounts[subset] = counts;
+			}
+
+			for (int c = 0; c < counts.length; c++)
+			{
+				counts[c] = without[c] + wordCounts[c];
+			}
+		}
+
+		for (int k = 0; k < last; k++)
+		{
+			int shorter = k + Dabble.MIN_WORD_LENGTH;
+			byte[] table = this.pairs[shorter][len];
+			int entry = drawn[k] * this.candidates[len].length + drawn[last];
+
+			if (table[entry] == UNKNOWN)
+			{
+				boolean other = this.solver.hasPartitionAvoiding(subsetCounts[(1 << k) | newest],
+						(1 << shorter) | (1 << len), words);
+				table[entry] = other ? NOT_UNIQUE : UNIQUE;
+			}
+
+			if (table[entry] == NOT_UNIQUE)
+			{
+				return false;
+			}
+		}
+
+		for (int size = 3; size <= last + 1; size++)
+		{
+			for (int subset = newest; subset < subsets; subset++)
+			{
+				if (Integer.bitCount(subset) == size
+						&& this.solver.hasPartitionAvoiding(subsetCounts[subset], subset << Dabble.MIN_WORD_LENGTH, words))
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns a new randomly chosen puzzle that has exactly one solution.
+	 *
+	 * @return a new puzzle having a unique solution
+	 */
+	public Dabble next()
+	{
+		while (true)
+		{
+			try
+			{
+				// the words are known to be unique, so the puzzle is not solved again
+				return new Dabble(this.nextWords(ThreadLocalRandom.current()), true);
+			}
+			catch (IllegalArgumentException e)
+			{
+				// every scramble of these letters forms a word; draw other words
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code count} new randomly chosen puzzles that each have exactly one
+	 * solution. The puzzles are generated in parallel using the common fork-join
+	 * pool.
+	 *
+	 * @param count the number of puzzles to generate
+	 * @return a list of {@code count} puzzles having a unique solution
+	 * @throws IllegalArgumentException if {@code count} is negative
+	 */
+	public List<Dabble> generate(int count)
+	{
+		if (count < 0)
+		{
+			throw new IllegalArgumentException("Expected non-negative count got " + count);
+		}
+
+		return IntStream.range(0, count)
+				.parallel()
+				.mapToObj(i -> this.next())
+				.collect(Collectors.toList());
+	}
+
+	public static void main(String[] args)
+	{
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		double fraction = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_RARE_FRACTION;
+		UniqueDabbleGenerator gen = new UniqueDabbleGenerator(Dabble.DICT, fraction);
+
+		long start = System.nanoTime();
+		List<Dabble> puzzles = gen.generate(count);
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println(puzzles.get(0));
+		System.out.printf("%d puzzles in %.1f ms (%.0f per second)%n", count, elapsed / 1e6, count / (elapsed / 1e9));
+	}
+}
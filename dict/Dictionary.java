@@ -1,5 +1,6 @@
 package dict;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -7,6 +8,7 @@ import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.zip.CRC32;
 
 
 /**
@@ -21,6 +23,7 @@ public class Dictionary {
 
 	private Map<Integer, TreeSet<String>> dicts;
 	private int size;
+	private long version;
 
 	/**
 	 * Reads the dictionary file and stores the words from the file in 
@@ -55,6 +58,25 @@ public class Dictionary {
 			this.dicts.put(wordLen, new TreeSet<String>());
 		}
 		this.readDictionary();
+		this.version = this.checksum();
+	}
+
+	/**
+	 * Returns a checksum of the words in this dictionary. The words are visited
+	 * in ascending order of length and then alphabetically, so the checksum
+	 * depends only on which words the dictionary contains.
+	 * 
+	 * @return a checksum of the words in this dictionary
+	 */
+	private long checksum() {
+		CRC32 crc = new CRC32();
+		for (int wordLen = 1; wordLen <= 10; wordLen++) {
+			for (String word : this.dicts.get(wordLen)) {
+				crc.update(word.getBytes(StandardCharsets.UTF_8));
+				crc.update('\n');
+			}
+		}
+		return crc.getValue();
 	}
 	
 	/**
@@ -87,6 +109,17 @@ public class Dictionary {
 		return this.size;
 	}
 
+	/**
+	 * Returns the version of this dictionary. Two dictionaries have the same
+	 * version if they contain the same words, so the version can be used to tell
+	 * whether data derived from a dictionary is still valid.
+	 * 
+	 * @return the version of this dictionary
+	 */
+	public long version() {
+		return this.version;
+	}
+
 	/**
 	 * Returns the set containing words of the specified length.
 	 * 